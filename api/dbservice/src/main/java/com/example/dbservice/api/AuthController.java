@@ -0,0 +1,103 @@
+package com.example.dbservice.api;
+
+import com.example.dbservice.api.dto.VerifyCredentialsRequest;
+import com.example.dbservice.auth.FailedAttemptCache;
+import com.example.dbservice.auth.PasswordService;
+import com.example.dbservice.model.Profile;
+import com.example.dbservice.repo.ProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping(value = "/db/auth", produces = MediaType.APPLICATION_JSON_VALUE)
+public class AuthController {
+
+  private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
+  private final ProfileRepository repo;
+  private final MongoTemplate mongo;
+  private final PasswordService passwords;
+  private final FailedAttemptCache failures;
+
+  public AuthController(ProfileRepository repo, MongoTemplate mongo,
+                        PasswordService passwords, FailedAttemptCache failures) {
+    this.repo = repo;
+    this.mongo = mongo;
+    this.passwords = passwords;
+    this.failures = failures;
+  }
+
+  /**
+   * Verify a username/email + password pair.
+   * 200 {ok, id} on match, 401 on mismatch or unknown login, 429 while the login is
+   * blocked for this client (X-Real-IP, forwarded by profile-api) after repeated failures,
+   * 503 when the verify pool is saturated.
+   */
+  @PostMapping(value = "/verify", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public CompletableFuture<ResponseEntity<?>> verify(@RequestBody VerifyCredentialsRequest req,
+                                                     @RequestHeader(value = "X-Real-IP", required = false) String clientIp) {
+    if (req.login == null || req.login.isBlank() || req.password == null || req.password.isEmpty()) {
+      return CompletableFuture.completedFuture(
+          ResponseEntity.badRequest().body(Map.of("error", "login and password are required")));
+    }
+
+    // reserves the attempt up front so concurrent guesses can't all pass the check
+    long blocked = failures.tryReserve(req.login, clientIp);
+    if (blocked > 0) {
+      long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(blocked));
+      return CompletableFuture.completedFuture(ResponseEntity.status(429)
+          .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+          .body(Map.of("ok", false, "error", "too many failed attempts")));
+    }
+
+    Profile creds;
+    CompletableFuture<Boolean> check;
+    try {
+      creds = repo.findCredentialsByLogin(req.login);
+      check = passwords.verify(req.password, creds != null ? creds.getPasswordHash() : null);
+    } catch (RejectedExecutionException rex) {
+      failures.refund(req.login, clientIp);
+      return CompletableFuture.completedFuture(
+          ResponseEntity.status(503).body(Map.of("ok", false, "error", "verification busy, retry later")));
+    } catch (RuntimeException e) {
+      failures.refund(req.login, clientIp);
+      throw e;
+    }
+    String hash = creds != null ? creds.getPasswordHash() : null;
+
+    return check.thenApply(ok -> {
+      if (!ok) {
+        // the reserved attempt stays counted as a failure
+        return ResponseEntity.status(401).body(Map.of("ok", false, "error", "invalid credentials"));
+      }
+      failures.clear(req.login, clientIp);
+      if (passwords.needsRehash(hash)) rehash(creds.getId(), req.password);
+      return ResponseEntity.ok(Map.of("ok", true, "id", creds.getId()));
+    });
+  }
+
+  /** Upgrade a stored hash to the current cost; best effort, the login has already succeeded. */
+  private void rehash(String id, String password) {
+    try {
+      mongo.updateFirst(Query.query(Criteria.where("_id").is(id)),
+          new Update().set("passwordHash", passwords.hash(password)).set("updatedAt", Instant.now()),
+          Profile.class);
+    } catch (RuntimeException e) {
+      log.warn("could not rehash password for profile {}: {}", id, e.toString());
+    }
+  }
+}
@@ -1,18 +1,22 @@
 package com.example.dbservice.api;
 
+import com.example.dbservice.api.dto.BatchGetRequest;
 import com.example.dbservice.api.dto.CreateProfileRequest;
+import com.example.dbservice.auth.PasswordService;
 import com.example.dbservice.model.Profile;
+import com.example.dbservice.model.UuidV7;
 import com.example.dbservice.repo.ProfileRepository;
 import com.example.dbservice.migration.MigrationService;
 import com.example.dbservice.migration.MigrationService.ApplyResult;
 import com.example.dbservice.migration.MigrationService.MigrationConflictException;
+import com.example.dbservice.migration.ProfileIdBackfill;
 import org.bson.Document;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -20,12 +24,20 @@ import java.util.Map;
 @RequestMapping(value = "/db", produces = MediaType.APPLICATION_JSON_VALUE)
 public class DbController {
 
+  /** Upper bound on ids per batchGet so one call stays a single bounded $in query. */
+  static final int MAX_BATCH_IDS = 500;
+
   private final ProfileRepository repo;
   private final MigrationService migrationService;
+  private final PasswordService passwords;
+  private final ProfileIdBackfill profileIdBackfill;
 
-  public DbController(ProfileRepository repo, MigrationService migrationService) {
+  public DbController(ProfileRepository repo, MigrationService migrationService, PasswordService passwords,
+                      ProfileIdBackfill profileIdBackfill) {
     this.repo = repo;
     this.migrationService = migrationService;
+    this.passwords = passwords;
+    this.profileIdBackfill = profileIdBackfill;
   }
 
   // ---- health ----
@@ -40,6 +52,26 @@ public class DbController {
     return repo.findAll();
   }
 
+  @GetMapping("/profiles/{id}")
+  public ResponseEntity<?> profile(@PathVariable String id) {
+    return repo.findById(id)
+        .<ResponseEntity<?>>map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "profile not found")));
+  }
+
+  /** Fetch many profiles with one {_id: {$in: ids}} query; unknown ids are simply absent. */
+  @PostMapping(value = "/profiles:batchGet", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> batchGet(@RequestBody BatchGetRequest req) {
+    if (req.ids == null || req.ids.isEmpty()) {
+      return ResponseEntity.ok(List.of());
+    }
+    LinkedHashSet<String> ids = new LinkedHashSet<>(req.ids);
+    if (ids.size() > MAX_BATCH_IDS) {
+      return ResponseEntity.badRequest().body(Map.of("error", "at most " + MAX_BATCH_IDS + " ids per batch"));
+    }
+    return ResponseEntity.ok(repo.findAllById(ids));
+  }
+
   @PostMapping(value = "/profiles", consumes = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<?> create(@RequestBody CreateProfileRequest req) {
     // basic validation
@@ -53,10 +85,10 @@ public class DbController {
       return ResponseEntity.badRequest().body(Map.of("error", "password is required"));
     }
 
-    String salt = BCrypt.gensalt(12);
-    String hash = BCrypt.hashpw(req.password, salt);
+    String hash = passwords.hash(req.password);
 
     Profile p = new Profile();
+    p.setProfileId(UuidV7.next());
     p.setUsername(req.username);
     p.setFirstName(req.firstName);
     p.setLastName(req.lastName);
@@ -92,6 +124,19 @@ public class DbController {
     }
   }
 
+  /** Assign profileIds to profiles created before the field existed (idempotent). */
+  @PostMapping("/migrations/backfill/profileId")
+  public ResponseEntity<?> backfillProfileIds() {
+    try {
+      return ResponseEntity.ok(Map.of("updated", profileIdBackfill.run()));
+    } catch (Exception e) {
+      return ResponseEntity.status(500).body(Map.of(
+          "error", e.getClass().getSimpleName(),
+          "message", e.getMessage()
+      ));
+    }
+  }
+
   // Accept BOTH GET and POST for /db/migrations/status
   @RequestMapping(value = "/migrations/status", method = {RequestMethod.GET, RequestMethod.POST})
   public ResponseEntity<?> migrationStatus() {
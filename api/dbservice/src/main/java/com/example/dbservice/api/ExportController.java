@@ -0,0 +1,99 @@
+package com.example.dbservice.api;
+
+import com.example.dbservice.export.ProfileExportService;
+import com.example.dbservice.export.ProfileExportService.ExportJob;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bulk export of profiles as gzip NDJSON, for analytics jobs that used to scrape GET /db/profiles.
+ *
+ *   POST /db/exports/profiles[?afterId=]          start a background file export -> 202 {jobId, ...}
+ *   GET  /db/exports/profiles/{jobId}             progress (status, exported, total, lastId)
+ *   POST /db/exports/profiles/{jobId}/resume      re-run a failed job from its last checkpoint (409 unless failed here)
+ *   GET  /db/exports/profiles/{jobId}/download    the finished .ndjson.gz file (409 if another instance wrote it)
+ *   GET  /db/exports/profiles.ndjson.gz[?afterId=] stream the export directly, no file
+ */
+@RestController
+@RequestMapping(value = "/db/exports", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ExportController {
+
+  private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+  private final ProfileExportService exports;
+
+  public ExportController(ProfileExportService exports) {
+    this.exports = exports;
+  }
+
+  @PostMapping("/profiles")
+  public ResponseEntity<?> start(@RequestParam(value = "afterId", required = false) String afterId) {
+    try {
+      ExportJob job = exports.start(afterId);
+      return ResponseEntity.accepted().body(job.toMap());
+    } catch (RejectedExecutionException rex) {
+      return ResponseEntity.status(503).body(Map.of("error", "too many exports queued, retry later"));
+    }
+  }
+
+  @GetMapping("/profiles/{jobId}")
+  public ResponseEntity<?> status(@PathVariable String jobId) {
+    Map<String, Object> s = exports.status(jobId);
+    return s == null
+        ? ResponseEntity.status(404).body(Map.of("error", "unknown export job"))
+        : ResponseEntity.ok(s);
+  }
+
+  @PostMapping("/profiles/{jobId}/resume")
+  public ResponseEntity<?> resume(@PathVariable String jobId) {
+    try {
+      ExportJob job = exports.resume(jobId);
+      return job == null
+          ? ResponseEntity.status(404).body(Map.of("error", "unknown export job"))
+          : ResponseEntity.accepted().body(job.toMap());
+    } catch (IllegalStateException ise) {
+      return ResponseEntity.status(409).body(Map.of("error", ise.getMessage()));
+    } catch (RejectedExecutionException rex) {
+      return ResponseEntity.status(503).body(Map.of("error", "too many exports queued, retry later"));
+    }
+  }
+
+  @GetMapping(value = "/profiles/{jobId}/download", produces = {"application/gzip", MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<?> download(@PathVariable String jobId) {
+    Path file;
+    try {
+      file = exports.file(jobId);
+    } catch (IllegalStateException ise) {
+      return ResponseEntity.status(409).contentType(MediaType.APPLICATION_JSON).body(Map.of("error", ise.getMessage()));
+    }
+    if (file == null) {
+      return ResponseEntity.status(404).contentType(MediaType.APPLICATION_JSON)
+          .body(Map.of("error", "export not found or not finished"));
+    }
+    return ResponseEntity.ok()
+        .contentType(GZIP)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+        .body(new FileSystemResource(file));
+  }
+
+  /**
+   * Written on the request thread rather than as an async StreamingResponseBody, so a long export
+   * isn't cut off by the async request timeout and no longer timeout is needed globally.
+   */
+  @GetMapping(value = "/profiles.ndjson.gz", produces = "application/gzip")
+  public void stream(@RequestParam(value = "afterId", required = false) String afterId,
+                     HttpServletResponse res) throws IOException {
+    res.setContentType(GZIP.toString());
+    res.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"profiles.ndjson.gz\"");
+    exports.streamTo(res.getOutputStream(), afterId);
+  }
+}
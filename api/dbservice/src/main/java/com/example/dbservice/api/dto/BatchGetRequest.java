@@ -0,0 +1,8 @@
+package com.example.dbservice.api.dto;
+
+import java.util.List;
+
+public class BatchGetRequest {
+    /** Profile ids (_id); duplicates are ignored. */
+    public List<String> ids;
+}
@@ -0,0 +1,7 @@
+package com.example.dbservice.api.dto;
+
+public class VerifyCredentialsRequest {
+    /** Username or email. */
+    public String login;
+    public String password;
+}
@@ -0,0 +1,91 @@
+package com.example.dbservice.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived record of recent verification attempts per login and client IP, so brute-force
+ * loops are cut off before they cost a BCrypt hash. Keying by IP as well means a stranger
+ * guessing at someone's login only locks out themselves, not the owner's client.
+ *
+ * Each attempt is reserved atomically before hashing ({@link #tryReserve}), so concurrent
+ * guesses cannot all slip past the limit; a success clears the entry, a failure keeps the
+ * reservation, and an attempt that never ran is {@link #refund refunded}. A (login, IP) pair is
+ * blocked once it has {@code maxFailures} attempts inside the window.
+ *
+ * The map never holds more than {@code maxEntries}: when full, expired windows are swept (at most
+ * once per second), and if it is still full of live entries new pairs are simply not tracked —
+ * the per-IP admission control in the front services still applies to them.
+ */
+@Component
+public class FailedAttemptCache {
+
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final ConcurrentHashMap<String, Window> attempts = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+    private final int maxFailures;
+    private final long windowNanos;
+    private final int maxEntries;
+
+    public FailedAttemptCache(@Value("${auth.failures.max:5}") int maxFailures,
+                              @Value("${auth.failures.window:PT5M}") Duration window,
+                              @Value("${auth.failures.max-entries:100000}") int maxEntries) {
+        this.maxFailures = maxFailures;
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Reserve one attempt for this login from this client.
+     * @return 0 if the attempt may proceed, otherwise the nanos until the pair is unblocked.
+     */
+    public long tryReserve(String login, String clientIp) {
+        long now = System.nanoTime();
+        String key = key(login, clientIp);
+        if (!attempts.containsKey(key) && !makeRoom(now)) return 0L;
+
+        long[] blocked = {0L};
+        attempts.compute(key, (k, w) -> {
+            if (w == null || now - w.startNanos() >= windowNanos) return new Window(1, now);
+            if (w.count() >= maxFailures) {
+                blocked[0] = Math.max(1L, w.startNanos() + windowNanos - now);
+                return w;
+            }
+            return new Window(w.count() + 1, w.startNanos());
+        });
+        return blocked[0];
+    }
+
+    /** Give back a reservation for an attempt that never reached the password check. */
+    public void refund(String login, String clientIp) {
+        attempts.computeIfPresent(key(login, clientIp), (k, w) ->
+                w.count() <= 1 ? null : new Window(w.count() - 1, w.startNanos()));
+    }
+
+    /** Successful verification: forget this pair's attempts. */
+    public void clear(String login, String clientIp) {
+        attempts.remove(key(login, clientIp));
+    }
+
+    /** True if a new entry may be added; sweeps expired windows when full (rate-limited). */
+    private boolean makeRoom(long now) {
+        if (attempts.size() < maxEntries) return true;
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            attempts.values().removeIf(w -> now - w.startNanos() >= windowNanos);
+        }
+        return attempts.size() < maxEntries;
+    }
+
+    private static String key(String login, String clientIp) {
+        return login.trim().toLowerCase(Locale.ROOT) + "|" + (clientIp == null || clientIp.isBlank() ? "-" : clientIp.trim());
+    }
+
+    private record Window(int count, long startNanos) { }
+}
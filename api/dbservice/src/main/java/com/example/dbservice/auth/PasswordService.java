@@ -0,0 +1,67 @@
+package com.example.dbservice.auth;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hashing and verification. Verifications run on a dedicated, bounded pool so a burst of
+ * login attempts cannot starve the request threads; when the pool and its queue are full,
+ * {@link #verify} fails fast with {@link java.util.concurrent.RejectedExecutionException}.
+ */
+@Service
+public class PasswordService {
+
+    private final int cost;
+    private final ThreadPoolExecutor verifyPool;
+    /** Compared against when the login is unknown so response time does not reveal it. */
+    private final String dummyHash;
+
+    public PasswordService(@Value("${auth.bcrypt-cost:12}") int cost,
+                           @Value("${auth.verify.threads:4}") int threads,
+                           @Value("${auth.verify.queue:64}") int queue) {
+        this.cost = cost;
+        AtomicInteger n = new AtomicInteger();
+        this.verifyPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-verify-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = hash("dummy-password-for-timing");
+    }
+
+    public String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    /** Checks {@code password} against {@code hash} (or a dummy hash when null) on the verify pool. */
+    public CompletableFuture<Boolean> verify(String password, String hash) {
+        String target = hash != null ? hash : dummyHash;
+        return CompletableFuture.supplyAsync(() -> BCrypt.checkpw(password, target) && hash != null, verifyPool);
+    }
+
+    /** True when the stored hash was produced with a different cost than the configured one. */
+    public boolean needsRehash(String hash) {
+        // BCrypt format: $2a$12$<salt+hash>
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifyPool.shutdown();
+    }
+}
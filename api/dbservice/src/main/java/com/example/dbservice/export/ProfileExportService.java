@@ -0,0 +1,399 @@
+package com.example.dbservice.export;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the profiles collection as gzip-compressed NDJSON (one profile per line).
+ *
+ * Documents are read from a server-side cursor in _id order with a projection that drops
+ * credentials, and written straight to the output stream, so heap use does not depend on
+ * collection size. Background jobs write to {@code export.dir}.
+ *
+ * A job's file is a sequence of gzip members (multi-member gzip, read transparently by gunzip and
+ * GZIPInputStream): every {@code export.checkpoint-every} documents the current member is finished
+ * and the checkpoint — last exported _id, document count and the file's byte length at that
+ * member boundary — is saved in the "exports" collection. Resuming a failed job truncates its
+ * .part file back to the checkpoint and appends from the next _id, so the finished file holds the
+ * whole export.
+ *
+ * Files live on this instance's local {@code export.dir}, so every job records the instance that
+ * owns it ({@code export.instance}, stable across restarts of the same container/volume). Only
+ * the owner resumes or serves a job, and on startup an instance marks its own jobs still
+ * queued/running as failed — never those another replica is running.
+ */
+@Service
+public class ProfileExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileExportService.class);
+
+    /** Everything except passwordHash and Spring's _class. */
+    private static final Bson PROJECTION = Projections.include(
+            "profileId", "username", "firstName", "lastName", "birthday", "country", "mobile", "email", "createdAt", "updatedAt");
+
+    /** Plain strings for ids/UUIDs and ISO-8601 for dates instead of extended-JSON wrappers. */
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .objectIdConverter((v, w) -> w.writeString(v.toHexString()))
+            .dateTimeConverter((v, w) -> w.writeString(Instant.ofEpochMilli(v).toString()))
+            .binaryConverter((v, w) -> {
+                if (v.getType() == BsonBinarySubType.UUID_STANDARD.getValue()) {
+                    w.writeString(v.asUuid().toString());
+                } else {
+                    w.writeString(Base64.getEncoder().encodeToString(v.getData()));
+                }
+            })
+            .build();
+
+    private final MongoCollection<Document> profiles;
+    private final MongoCollection<Document> exports;
+    private final Path exportDir;
+    private final int batchSize;
+    private final int checkpointEvery;
+    private final String instance;
+    private final ThreadPoolExecutor pool;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProfileExportService(com.mongodb.client.MongoClient mongoClient,
+                                @Value("${SPRING_DATA_MONGODB_DATABASE:mini}") String dbName,
+                                @Value("${export.dir:/tmp/exports}") String exportDir,
+                                @Value("${export.batch-size:500}") int batchSize,
+                                @Value("${export.checkpoint-every:1000}") int checkpointEvery,
+                                @Value("${export.instance:${HOSTNAME:db-service}}") String instance) {
+        MongoDatabase db = mongoClient.getDatabase(dbName);
+        this.profiles = db.getCollection("profiles");
+        this.exports = db.getCollection("exports");
+        this.exportDir = Paths.get(exportDir);
+        this.batchSize = batchSize;
+        this.checkpointEvery = checkpointEvery;
+        this.instance = instance;
+        // one export at a time; a few may queue behind it
+        this.pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4),
+                r -> {
+                    Thread t = new Thread(r, "profile-export");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue a background export to a file, starting after {@code afterId} (null = from the start).
+     * @throws RejectedExecutionException when too many exports are queued
+     */
+    public ExportJob start(String afterId) {
+        String id = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(id, afterId, exportDir.resolve("profiles-" + id + ".ndjson.gz"), instance);
+        jobs.put(id, job);
+        save(job);
+        try {
+            pool.execute(() -> run(job));
+        } catch (RejectedExecutionException rex) {
+            jobs.remove(id);
+            exports.deleteOne(Filters.eq("_id", id));
+            throw rex;
+        }
+        return job;
+    }
+
+    /**
+     * Re-run a failed job from its last checkpoint into the same file; null if the job is unknown.
+     * @throws IllegalStateException if the job has not failed or belongs to another instance
+     * @throws RejectedExecutionException when too many exports are queued
+     */
+    public synchronized ExportJob resume(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            Document d = exports.find(Filters.eq("_id", jobId)).first();
+            if (d == null) return null;
+            job = ExportJob.fromDocument(d);
+        }
+        requireOwned(job.id, job.instance);
+        if (!"failed".equals(job.status)) {
+            throw new IllegalStateException("export is " + job.status + "; only failed exports can be resumed");
+        }
+        job.status = "queued";
+        job.error = null;
+        job.finishedAt = null;
+        jobs.put(jobId, job);
+        save(job);
+        ExportJob queued = job;
+        try {
+            pool.execute(() -> run(queued));
+        } catch (RejectedExecutionException rex) {
+            job.status = "failed";
+            save(job);
+            throw rex;
+        }
+        return job;
+    }
+
+    /** Progress of a job, from memory or (after a restart) from the exports collection. */
+    public Map<String, Object> status(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job != null) return job.toMap();
+        Document d = exports.find(Filters.eq("_id", jobId)).first();
+        if (d == null) return null;
+        Map<String, Object> m = new LinkedHashMap<>(d);
+        m.put("jobId", m.remove("_id"));
+        return m;
+    }
+
+    /**
+     * File of a finished job, or null if the job is unknown or not done.
+     * @throws IllegalStateException if the job belongs to another instance
+     */
+    public Path file(String jobId) {
+        Map<String, Object> s = status(jobId);
+        if (s == null || !"done".equals(s.get("status"))) return null;
+        requireOwned(jobId, (String) s.get("instance"));
+        return Paths.get((String) s.get("file"));
+    }
+
+    /** Stream gzip NDJSON straight to {@code out} (used for direct downloads). */
+    public long streamTo(OutputStream out, String afterId) throws IOException {
+        return write(out, null, afterId, null);
+    }
+
+    /** Our jobs persisted as queued/running belong to a process that is gone; make them resumable. */
+    @PostConstruct
+    void failInterruptedJobs() {
+        try {
+            long n = exports.updateMany(Filters.and(Filters.eq("instance", instance),
+                    Filters.in("status", "queued", "running")), Updates.combine(
+                    Updates.set("status", "failed"),
+                    Updates.set("error", "interrupted by service restart"),
+                    Updates.set("finishedAt", Date.from(Instant.now())))).getModifiedCount();
+            if (n > 0) log.info("marked {} interrupted profile export(s) as failed", n);
+        } catch (Exception e) {
+            log.warn("could not mark interrupted exports as failed: {}", e.toString());
+        }
+    }
+
+    // ---- internals ----
+
+    private void requireOwned(String jobId, String owner) {
+        if (!instance.equals(owner)) {
+            throw new IllegalStateException("export " + jobId + " lives on instance " + owner + ", not " + instance);
+        }
+    }
+
+    private void run(ExportJob job) {
+        job.status = "running";
+        save(job);
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            Files.createDirectories(exportDir);
+            try (FileChannel ch = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (ch.size() < job.checkpointBytes) {
+                    // part file lost or shorter than the checkpoint: start over
+                    log.warn("profile export {}: part file shorter than checkpoint, restarting", job.id);
+                    job.checkpoint(job.afterId, 0L, 0L);
+                }
+                ch.truncate(job.checkpointBytes);
+                ch.position(job.checkpointBytes);
+                job.exported.set(job.checkpointExported);
+                job.lastId = job.checkpointId;
+                write(Channels.newOutputStream(ch), ch, job.checkpointId, job);
+                ch.force(false);
+            }
+            Files.move(part, job.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.status = "done";
+            log.info("profile export {} done: {} docs -> {}", job.id, job.exported.get(), job.file);
+        } catch (Exception e) {
+            job.status = "failed";
+            job.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            log.error("profile export {} failed after {} docs (lastId={})", job.id, job.exported.get(), job.lastId, e);
+        } finally {
+            job.finishedAt = Instant.now();
+            save(job);
+        }
+    }
+
+    /**
+     * Write gzip NDJSON for profiles after {@code afterId} to {@code out}. For jobs ({@code ch} set),
+     * a gzip member is finished and a checkpoint saved every checkpointEvery documents.
+     */
+    private long write(OutputStream out, FileChannel ch, String afterId, ExportJob job) throws IOException {
+        Bson filter = afterId == null ? new Document() : Filters.gt("_id", toId(afterId));
+        if (job != null) job.total = job.checkpointExported + profiles.countDocuments(filter);
+
+        GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024);
+        Writer w = writer(gz);
+        long n = 0;
+        try (MongoCursor<Document> cursor = profiles.find(filter)
+                .projection(PROJECTION)
+                .sort(Sorts.ascending("_id"))
+                .batchSize(batchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document d = cursor.next();
+                Object id = d.get("_id");
+                w.write(d.toJson(JSON));
+                w.write('\n');
+                n++;
+                if (job != null) {
+                    job.exported.incrementAndGet();
+                    job.lastId = id instanceof ObjectId oid ? oid.toHexString() : String.valueOf(id);
+                    if (n % checkpointEvery == 0) {
+                        // close the member so the file is valid gzip up to this offset
+                        w.flush();
+                        gz.finish();
+                        job.checkpoint(job.lastId, job.exported.get(), ch.position());
+                        save(job);
+                        gz = new GZIPOutputStream(out, 64 * 1024);
+                        w = writer(gz);
+                    }
+                }
+            }
+        }
+        w.flush();
+        gz.finish();
+        return n;
+    }
+
+    private static Writer writer(OutputStream gz) {
+        return new BufferedWriter(new OutputStreamWriter(gz, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private void save(ExportJob job) {
+        Document d = new Document("_id", job.id);
+        job.toMap().forEach((k, v) -> { if (!"jobId".equals(k)) d.append(k, v instanceof Instant i ? Date.from(i) : v); });
+        try {
+            exports.replaceOne(Filters.eq("_id", job.id), d, new ReplaceOptions().upsert(true));
+        } catch (Exception e) {
+            log.warn("could not persist export checkpoint {}: {}", job.id, e.toString());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // ---- job state ----
+
+    public static class ExportJob {
+        public final String id;
+        final String afterId;
+        final Path file;
+        final String instance;
+        final Instant startedAt;
+        final AtomicLong exported = new AtomicLong();
+        volatile String status = "queued";
+        volatile long total = -1;
+        volatile String lastId;
+        volatile String error;
+        volatile Instant finishedAt;
+        // last member boundary in the .part file
+        volatile String checkpointId;
+        volatile long checkpointExported;
+        volatile long checkpointBytes;
+
+        ExportJob(String id, String afterId, Path file, String instance) {
+            this(id, afterId, file, instance, Instant.now());
+        }
+
+        private ExportJob(String id, String afterId, Path file, String instance, Instant startedAt) {
+            this.id = id;
+            this.afterId = afterId;
+            this.file = file;
+            this.instance = instance;
+            this.startedAt = startedAt;
+            this.lastId = afterId;
+            this.checkpointId = afterId;
+        }
+
+        void checkpoint(String id, long exportedCount, long bytes) {
+            this.checkpointId = id;
+            this.checkpointExported = exportedCount;
+            this.checkpointBytes = bytes;
+        }
+
+        /** Rebuild a persisted job (e.g. after a restart) in its checkpointed state. */
+        static ExportJob fromDocument(Document d) {
+            Date started = d.getDate("startedAt");
+            ExportJob job = new ExportJob(d.getString("_id"), d.getString("afterId"), Paths.get(d.getString("file")),
+                    d.getString("instance"), started != null ? started.toInstant() : Instant.now());
+            job.status = d.getString("status");
+            job.checkpoint(d.getString("checkpointId"), number(d, "checkpointExported"), number(d, "checkpointBytes"));
+            job.exported.set(job.checkpointExported);
+            job.lastId = job.checkpointId;
+            job.error = d.getString("error");
+            return job;
+        }
+
+        private static long number(Document d, String key) {
+            Object v = d.get(key);
+            return v instanceof Number num ? num.longValue() : 0L;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("jobId", id);
+            m.put("status", status);
+            m.put("exported", exported.get());
+            m.put("total", total);
+            m.put("afterId", afterId);
+            m.put("lastId", lastId);
+            m.put("checkpointId", checkpointId);
+            m.put("checkpointExported", checkpointExported);
+            m.put("checkpointBytes", checkpointBytes);
+            m.put("file", file.toString());
+            m.put("instance", instance);
+            m.put("startedAt", startedAt);
+            m.put("finishedAt", finishedAt);
+            if (error != null) m.put("error", error);
+            return m;
+        }
+    }
+}
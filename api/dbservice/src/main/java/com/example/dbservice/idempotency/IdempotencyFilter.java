@@ -0,0 +1,314 @@
+package com.example.dbservice.idempotency;
+
+import com.example.dbservice.idempotency.IdempotencyStore.StoredResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Honors the Idempotency-Key header on configured write routes.
+ *
+ * The first request for a key runs normally and its response is stored (anything below 500
+ * except 404/405); retries replay that response without touching the controller. A stored
+ * response is only replayed to a request with the same fingerprint — the caller (X-API-Key,
+ * else the X-Real-IP forwarded by the front services) plus a hash of the body — anything else
+ * reusing the key gets 422. A duplicate arriving while the original is still running waits
+ * for it — on the same node through an in-flight future, on other replicas by polling the
+ * pending marker in Mongo — up to idempotency.wait-timeout. The owner renews its lease every
+ * third of idempotency.lease while the request runs, so a slow request is not taken over; markers
+ * left behind by a replica that died mid-request are taken over once their lease expires (see
+ * {@link IdempotencyStore#claim}).
+ *
+ * Bodies are buffered to be hashed, so they are capped at idempotency.max-body (413 beyond that).
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 100;
+
+    private final IdempotencyStore store;
+    private final Set<String> routes;
+    private final long waitNanos;
+    private final int maxBody;
+    private final long renewMillis;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "idempotency-lease");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${idempotency.routes:POST /db/profiles}") String[] routes,
+                             @Value("${idempotency.wait-timeout:PT10S}") Duration waitTimeout,
+                             @Value("${idempotency.max-body:1MB}") DataSize maxBody) {
+        this.store = store;
+        this.routes = Set.of(routes);
+        this.waitNanos = waitTimeout.toNanos();
+        this.maxBody = (int) Math.min(Integer.MAX_VALUE - 1, maxBody.toBytes());
+        this.renewMillis = Math.max(1L, store.lease().toMillis() / 3);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return req.getHeader(HEADER) == null || !routes.contains(req.getMethod() + " " + path(req));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String key = req.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(res, 400, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String id = req.getMethod() + " " + path(req) + "|" + key;
+        byte[] raw = req.getContentLengthLong() > maxBody ? null : req.getInputStream().readNBytes(maxBody + 1);
+        if (raw == null || raw.length > maxBody) {
+            writeError(res, 413, "request body too large for an " + HEADER + " request");
+            return;
+        }
+        CachedBodyRequest body = new CachedBodyRequest(req, raw);
+        String fingerprint = fingerprint(req, body.body);
+        long deadline = System.nanoTime() + waitNanos;
+
+        while (true) {
+            StoredResponse done = store.find(id);
+            if (done != null) {
+                replay(res, done, fingerprint);
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                writeError(res, 409, "a request with this " + HEADER + " is still in progress");
+                return;
+            }
+
+            InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+            InFlight running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                if (!running.fingerprint().equals(fingerprint)) {
+                    writeMismatch(res);
+                    return;
+                }
+                StoredResponse r = await(running.result(), deadline);
+                if (r != null) {
+                    replay(res, r, fingerprint);
+                    return;
+                }
+                // the original failed without a storable response (or we timed out); re-check
+                continue;
+            }
+
+            StoredResponse result = null;
+            try {
+                String owner = store.claim(id, fingerprint);
+                if (owner == null) {
+                    // another request holds a live lease (or just completed it); its lease bounds the wait
+                    String other = store.fingerprint(id);
+                    if (other != null && !other.equals(fingerprint)) {
+                        writeMismatch(res);
+                        return;
+                    }
+                    if (!sleep()) {
+                        writeError(res, 409, "a request with this " + HEADER + " is still in progress");
+                        return;
+                    }
+                    continue;
+                }
+                result = execute(body, res, chain, id, owner, fingerprint);
+                return;
+            } finally {
+                inFlight.remove(id, mine);
+                mine.result().complete(result);
+            }
+        }
+    }
+
+    /** Run the request as owner of {@code id}; returns the stored response, or null if it was not storable. */
+    private StoredResponse execute(HttpServletRequest req, HttpServletResponse res, FilterChain chain,
+                                   String id, String owner, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(res);
+        ScheduledFuture<?> heartbeat = renewer.scheduleAtFixedRate(
+                () -> renew(id, owner), renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        StoredResponse result = null;
+        boolean settled = false;
+        try {
+            chain.doFilter(req, wrapped);
+            heartbeat.cancel(false);
+            if (storable(wrapped.getStatus())) {
+                StoredResponse r = new StoredResponse(fingerprint, wrapped.getStatus(), wrapped.getContentType(),
+                        new String(wrapped.getContentAsByteArray(), StandardCharsets.UTF_8));
+                boolean stored = store.complete(id, owner, r);
+                settled = true;
+                if (stored) {
+                    result = r;
+                } else {
+                    // our lease was taken over; whatever the new owner stores is what retries will see
+                    log.warn("lost idempotency lease for {} before storing its {} response", id, r.status());
+                }
+            }
+        } finally {
+            heartbeat.cancel(false);
+            if (!settled) store.release(id, owner);
+            wrapped.copyBodyToResponse();
+        }
+        return result;
+    }
+
+    private void renew(String id, String owner) {
+        try {
+            if (!store.renew(id, owner)) log.warn("idempotency lease for {} was taken over while running", id);
+        } catch (Exception e) {
+            log.warn("could not renew idempotency lease for {}: {}", id, e.toString());
+        }
+    }
+
+    // ---- helpers ----
+
+    /** Server errors and "no handler" answers say nothing about the request; let retries run again. */
+    private static boolean storable(int status) {
+        return status < 500 && status != 404 && status != 405;
+    }
+
+    /** sha256 over the caller identity and the raw body. */
+    private static String fingerprint(HttpServletRequest req, byte[] body) {
+        String caller = req.getHeader("X-API-Key");
+        if (caller == null || caller.isBlank()) caller = req.getHeader("X-Real-IP");
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((caller == null ? "" : caller.trim()).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+            md.update(body);
+            return HexFormat.of().formatHex(md.digest());
+        } catch (Exception e) {
+            throw new RuntimeException("fingerprint error", e);
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> f, long deadline) {
+        try {
+            return f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void replay(HttpServletResponse res, StoredResponse r, String fingerprint) throws IOException {
+        if (!r.fingerprint().equals(fingerprint)) {
+            writeMismatch(res);
+            return;
+        }
+        log.debug("replaying stored response ({})", r.status());
+        res.setStatus(r.status());
+        if (r.contentType() != null) res.setContentType(r.contentType());
+        res.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = r.body() == null ? new byte[0] : r.body().getBytes(StandardCharsets.UTF_8);
+        res.setContentLength(body.length);
+        res.getOutputStream().write(body);
+    }
+
+    private static void writeMismatch(HttpServletResponse res) throws IOException {
+        writeError(res, 422, HEADER + " was already used for a different request");
+    }
+
+    private static void writeError(HttpServletResponse res, int status, String msg) throws IOException {
+        res.setStatus(status);
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.getWriter().write("{\"error\":\"" + msg + "\"}");
+    }
+
+    /** The path Spring MVC matches handlers on: decoded, ";params" stripped, without the context path. */
+    private static String path(HttpServletRequest req) {
+        return UrlPathHelper.defaultInstance.getLookupPathForRequest(req);
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<StoredResponse> result) { }
+
+    /** Holds the body read up front so it can be hashed and still handed to the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest req, byte[] body) {
+            super(req);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) {
+                    // everything is already in memory: report it available and finished right away
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
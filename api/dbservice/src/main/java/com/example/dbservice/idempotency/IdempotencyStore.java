@@ -0,0 +1,161 @@
+package com.example.dbservice.idempotency;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completed responses keyed by "METHOD path|Idempotency-Key", each tagged with the fingerprint
+ * (caller + request body hash) of the request that produced it.
+ * Hot entries live in a small in-process LRU; the "idempotency" collection is the source
+ * of truth across replicas and expires entries through a TTL index on createdAt (reset when the
+ * response is stored). Both the LRU and Mongo reads honor that same expiry, so a replica never
+ * replays a key the others have already forgotten.
+ *
+ * A pending marker carries a lease (leaseUntil, idempotency.lease from the last claim/renew) and
+ * an owner token. The owner {@link #renew renews} it while its request runs; if the owning replica
+ * dies mid-request the marker is never released, so once the lease has run out the next claim
+ * takes the key over instead of waiting for the TTL.
+ */
+@Service
+public class IdempotencyStore {
+
+    private final MongoCollection<Document> coll;
+    private final Map<String, Cached> lru;
+    private final Duration ttl;
+    private final Duration lease;
+
+    public IdempotencyStore(com.mongodb.client.MongoClient mongoClient,
+                            @Value("${SPRING_DATA_MONGODB_DATABASE:mini}") String dbName,
+                            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.lru-size:10000}") int lruSize,
+                            @Value("${idempotency.lease:PT60S}") Duration lease) {
+        this.coll = mongoClient.getDatabase(dbName).getCollection("idempotency");
+        this.ttl = ttl;
+        this.lease = lease;
+        this.lru = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > lruSize;
+            }
+        });
+
+        try {
+            coll.createIndex(new Document("createdAt", 1),
+                    new IndexOptions().name("ttl_createdAt").expireAfter(ttl.toSeconds(), TimeUnit.SECONDS));
+        } catch (Exception ignored) {
+            // index may already exist with another TTL—safe to ignore
+        }
+    }
+
+    /** Completed response for this id, or null if unknown or still pending. */
+    public StoredResponse find(String id) {
+        Instant now = Instant.now();
+        Cached hit = lru.get(id);
+        if (hit != null) {
+            if (hit.expiresAt().isAfter(now)) return hit.response();
+            lru.remove(id);
+        }
+
+        Document d = coll.find(Filters.eq("_id", id)).first();
+        if (d == null || !"done".equals(d.getString("status"))) return null;
+        // the TTL monitor only runs about once a minute; don't replay what it is about to delete
+        Instant expiresAt = d.getDate("createdAt").toInstant().plus(ttl);
+        if (!expiresAt.isAfter(now)) return null;
+        StoredResponse r = new StoredResponse(d.getString("fingerprint"), d.getInteger("statusCode"),
+                d.getString("contentType"), d.getString("body"));
+        lru.put(id, new Cached(r, expiresAt));
+        return r;
+    }
+
+    /** Fingerprint of whichever request holds or completed this id, or null if none does. */
+    public String fingerprint(String id) {
+        Document d = coll.find(Filters.eq("_id", id)).projection(new Document("fingerprint", 1)).first();
+        return d == null ? null : d.getString("fingerprint");
+    }
+
+    /**
+     * Take the pending lease for this id: creates the marker, or takes over one whose lease expired.
+     * @return an owner token for {@link #complete}/{@link #release}, or null if another request
+     *         (on any replica) holds a live lease or the id is already done.
+     */
+    public String claim(String id, String fingerprint) {
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        try {
+            // upsert: inserts when the id is new; when it exists but doesn't match (live lease or done),
+            // the insert hits the _id unique index and we lose the race
+            Document d = coll.findOneAndUpdate(
+                    Filters.and(Filters.eq("_id", id), Filters.eq("status", "pending"),
+                            Filters.lt("leaseUntil", Date.from(now))),
+                    Updates.combine(
+                            Updates.set("fingerprint", fingerprint),
+                            Updates.set("owner", owner),
+                            Updates.set("leaseUntil", Date.from(now.plus(lease))),
+                            Updates.set("createdAt", Date.from(now))),
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            return d != null ? owner : null;
+        } catch (MongoException e) {
+            if (e.getCode() == 11000) return null;
+            throw e;
+        }
+    }
+
+    /** Push our lease out by another idempotency.lease; false if the marker is no longer ours. */
+    public boolean renew(String id, String owner) {
+        return coll.updateOne(pending(id, owner),
+                Updates.set("leaseUntil", Date.from(Instant.now().plus(lease)))).getMatchedCount() > 0;
+    }
+
+    /**
+     * Store the response for a marker we own.
+     * @return false if we had lost the lease (another request took the key over), in which case
+     *         nothing is stored and that request's outcome wins.
+     */
+    public boolean complete(String id, String owner, StoredResponse r) {
+        Instant now = Instant.now();
+        boolean stored = coll.updateOne(pending(id, owner), Updates.combine(
+                Updates.set("status", "done"),
+                Updates.unset("leaseUntil"),
+                Updates.set("createdAt", Date.from(now)),
+                Updates.set("statusCode", r.status()),
+                Updates.set("contentType", r.contentType()),
+                Updates.set("body", r.body()))).getMatchedCount() > 0;
+        if (stored) lru.put(id, new Cached(r, now.plus(ttl)));
+        return stored;
+    }
+
+    /** Drop our pending marker so a later retry can run (used when the original failed). */
+    public void release(String id, String owner) {
+        coll.deleteOne(pending(id, owner));
+    }
+
+    public Duration lease() {
+        return lease;
+    }
+
+    private static Bson pending(String id, String owner) {
+        return Filters.and(Filters.eq("_id", id), Filters.eq("owner", owner), Filters.eq("status", "pending"));
+    }
+
+    public record StoredResponse(String fingerprint, int status, String contentType, String body) { }
+
+    private record Cached(StoredResponse response, Instant expiresAt) { }
+}
@@ -0,0 +1,77 @@
+package com.example.dbservice.migration;
+
+import com.example.dbservice.model.UuidV7;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Assigns a UUIDv7 profileId to profiles created before the field existed (they all index
+ * null under uniq_profileId). Works in _id order, one bulkWrite per batch; each id is derived
+ * from the profile's createdAt so backfilled ids keep creation order. Safe to re-run: only
+ * documents whose profileId is still missing/null are touched.
+ */
+@Service
+public class ProfileIdBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileIdBackfill.class);
+
+    private final MongoCollection<Document> profiles;
+    private final int batchSize;
+
+    public ProfileIdBackfill(com.mongodb.client.MongoClient mongoClient,
+                             @Value("${SPRING_DATA_MONGODB_DATABASE:mini}") String dbName,
+                             @Value("${backfill.batch-size:500}") int batchSize) {
+        this.profiles = mongoClient.getDatabase(dbName).getCollection("profiles");
+        this.batchSize = batchSize;
+    }
+
+    /** Backfill all missing profileIds; returns the number of documents updated. */
+    public long run() {
+        Bson missing = Filters.eq("profileId", null);
+        Object lastId = null;
+        long updated = 0;
+
+        while (true) {
+            Bson filter = lastId == null ? missing : Filters.and(missing, Filters.gt("_id", lastId));
+            List<Document> batch = profiles.find(filter)
+                    .projection(Projections.include("_id", "createdAt"))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>(batchSize));
+            if (batch.isEmpty()) break;
+
+            List<WriteModel<Document>> writes = new ArrayList<>(batch.size());
+            for (Document d : batch) {
+                writes.add(new UpdateOneModel<>(
+                        Filters.and(Filters.eq("_id", d.get("_id")), missing),
+                        Updates.set("profileId", profileIdFor(d.getDate("createdAt")))));
+            }
+            updated += profiles.bulkWrite(writes).getModifiedCount();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+
+        log.info("profileId backfill: {} profiles updated", updated);
+        return updated;
+    }
+
+    /** Id in createdAt order, sorting before ids issued later by UuidV7.next(); a fresh one if createdAt is unknown. */
+    static UUID profileIdFor(Date createdAt) {
+        return createdAt != null ? UuidV7.at(createdAt.getTime()) : UuidV7.next();
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.UUID;
 
 @Document(collection = "profiles")
 public class Profile {
@@ -13,6 +14,9 @@ public class Profile {
     @Id
     private String id;
 
+    /** Server-generated, time-ordered (UUIDv7); unique via uniq_profileId. */
+    private UUID profileId;
+
     private String username;
     private String firstName;
     private String lastName;
@@ -35,6 +39,9 @@ public class Profile {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
+    public UUID getProfileId() { return profileId; }
+    public void setProfileId(UUID profileId) { this.profileId = profileId; }
+
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
 
@@ -0,0 +1,47 @@
+package com.example.dbservice.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48-bit Unix millis, then a 12-bit counter, then
+ * 62 random bits. Ids from {@link #next()} are strictly increasing within this process, so
+ * inserts into the uniq_profileId index land at the right edge of the B-tree.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    /** Last issued (millis << 12 | counter). */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {}
+
+    /** Next monotonic id; the counter carries into the timestamp if more than 4096 are issued in one ms. */
+    public static UUID next() {
+        return next(LAST, System.currentTimeMillis());
+    }
+
+    /** {@link #next()} against explicit state and clock. */
+    static UUID next(AtomicLong last, long nowMillis) {
+        long now = nowMillis << 12;
+        long state;
+        while (true) {
+            long prev = last.get();
+            state = Math.max(now, prev + 1);
+            if (last.compareAndSet(prev, state)) break;
+        }
+        return build(state >>> 12, state & 0xFFF);
+    }
+
+    /** Id for a document created at {@code epochMillis} (used when backfilling existing data). */
+    public static UUID at(long epochMillis) {
+        return build(epochMillis, RANDOM.nextInt(0x1000));
+    }
+
+    private static UUID build(long millis, long counter) {
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -2,8 +2,25 @@ package com.example.dbservice.repo;
 
 import com.example.dbservice.model.Profile;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 public interface ProfileRepository extends MongoRepository<Profile, String> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /** Exact match on uniq_username; only _id and passwordHash are returned. */
+    @Query(value = "{ 'username': ?0 }", fields = "{ 'passwordHash': 1 }")
+    Profile findCredentialsByUsername(String username);
+
+    /** Exact match on uniq_email; only _id and passwordHash are returned. */
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'passwordHash': 1 }")
+    Profile findCredentialsByEmail(String email);
+
+    /**
+     * Logins containing '@' are treated as emails, anything else as a username, so each lookup
+     * hits one unique index and returns at most one document.
+     */
+    default Profile findCredentialsByLogin(String login) {
+        return login.indexOf('@') >= 0 ? findCredentialsByEmail(login) : findCredentialsByUsername(login);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dbservice.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileIdBackfillTest {
+
+    /** Unsigned byte order, as Mongo sorts standard UUIDs in uniq_profileId. */
+    private static int indexOrder(UUID a, UUID b) {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    @Test
+    void backfilledIdsFollowCreatedAtOrder() {
+        Instant start = Instant.parse("2021-03-01T00:00:00Z");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(ProfileIdBackfill.profileIdFor(Date.from(start.plus(Duration.ofMinutes(7L * i)))));
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(indexOrder(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+    }
+
+    @Test
+    void backfilledIdsSortBeforeNewlyIssuedOnes() {
+        UUID backfilled = ProfileIdBackfill.profileIdFor(Date.from(Instant.now().minusSeconds(1)));
+        UUID fresh = ProfileIdBackfill.profileIdFor(null);
+        assertThat(fresh.version()).isEqualTo(7);
+        assertThat(indexOrder(backfilled, fresh)).isNegative();
+    }
+}
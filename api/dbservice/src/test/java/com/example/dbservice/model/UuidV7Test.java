@@ -0,0 +1,107 @@
+package com.example.dbservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    /** Mongo orders standard (subtype 4) UUIDs by their bytes, i.e. unsigned. */
+    private static final Comparator<UUID> INDEX_ORDER = (a, b) -> {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private static final long T = 1_700_000_000_000L;
+
+    @Test
+    void setsVersionAndVariantBits() {
+        for (UUID id : List.of(UuidV7.next(), UuidV7.at(T), UuidV7.next(new AtomicLong(), T))) {
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void encodesMillisInTheTop48Bits() {
+        assertThat(UuidV7.at(T).getMostSignificantBits() >>> 16).isEqualTo(T);
+        assertThat(UuidV7.next(new AtomicLong(), T).getMostSignificantBits() >>> 16).isEqualTo(T);
+    }
+
+    @Test
+    void counterCarriesIntoTimestampAfter4096IdsInOneMilli() {
+        AtomicLong state = new AtomicLong();
+        UUID prev = null;
+        for (int i = 0; i < 4096; i++) {
+            UUID id = UuidV7.next(state, T);
+            assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(T);
+            assertThat(id.getMostSignificantBits() & 0xFFF).isEqualTo(i);
+            if (prev != null) assertThat(INDEX_ORDER.compare(prev, id)).isNegative();
+            prev = id;
+        }
+        UUID carried = UuidV7.next(state, T);
+        assertThat(carried.getMostSignificantBits() >>> 16).isEqualTo(T + 1);
+        assertThat(carried.getMostSignificantBits() & 0xFFF).isZero();
+        assertThat(INDEX_ORDER.compare(prev, carried)).isNegative();
+        // the real clock catching up continues from there rather than repeating values
+        assertThat(UuidV7.next(state, T + 1).getMostSignificantBits() & 0xFFF).isEqualTo(1);
+    }
+
+    @Test
+    void staysMonotonicWhenTheClockGoesBack() {
+        AtomicLong state = new AtomicLong();
+        UUID a = UuidV7.next(state, T);
+        UUID b = UuidV7.next(state, T - 5_000);
+        assertThat(INDEX_ORDER.compare(a, b)).isNegative();
+    }
+
+    @Test
+    void strictlyIncreasingUnderContention() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<UUID>>> results = new ArrayList<>();
+        try {
+            Callable<List<UUID>> task = () -> {
+                List<UUID> ids = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) ids.add(UuidV7.next());
+                return ids;
+            };
+            for (int t = 0; t < threads; t++) results.add(pool.submit(task));
+
+            Set<UUID> all = new HashSet<>();
+            for (Future<List<UUID>> f : results) {
+                List<UUID> ids = f.get();
+                for (int i = 1; i < ids.size(); i++) {
+                    assertThat(INDEX_ORDER.compare(ids.get(i - 1), ids.get(i))).isNegative();
+                }
+                all.addAll(ids);
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void atOrdersByTimestamp() {
+        UUID prev = UuidV7.at(T);
+        for (long ms = T + 1; ms < T + 1_000; ms++) {
+            UUID id = UuidV7.at(ms);
+            assertThat(INDEX_ORDER.compare(prev, id)).isNegative();
+            prev = id;
+        }
+    }
+}
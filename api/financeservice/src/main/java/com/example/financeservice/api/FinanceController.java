@@ -1,6 +1,7 @@
 package com.example.financeservice.api;
 
 import com.example.financeservice.config.DbServiceProperties;
+import com.example.financeservice.health.DbHealthMonitor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -24,40 +25,31 @@ public class FinanceController {
 
     private final WebClient dbClient;
     private final DbServiceProperties props;
+    private final DbHealthMonitor dbHealth;
 
     private static final Duration DB_TIMEOUT = Duration.ofSeconds(8);
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
-    public FinanceController(WebClient dbServiceClient, DbServiceProperties props) {
+    public FinanceController(WebClient dbServiceClient, DbServiceProperties props, DbHealthMonitor dbHealth) {
         this.dbClient = dbServiceClient;
         this.props = props;
+        this.dbHealth = dbHealth;
     }
 
     /* ===========================
        Health
        GET /finance/healthz
+       Reports the cached db-service state from DbHealthMonitor
        =========================== */
     @GetMapping("/healthz")
     public ResponseEntity<Map<String, Object>> healthz() {
-        try {
-            URI uri = buildDbUri(b -> b.path("/healthz").build());
-            Map<String, Object> raw = dbClient.get().uri(uri)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(DB_TIMEOUT);
-            return ResponseEntity.ok(Map.of(
-                "ok", true,
-                "service", "finance-service",
-                "db", Map.of("ok", true, "data", raw),
-                "ts", java.time.OffsetDateTime.now().toString()
-            ));
-        } catch (Exception ex) {
-            return ResponseEntity.ok(Map.of(
-                "ok", true,
-                "service", "finance-service",
-                "db", Map.of("ok", false, "error", ex.getClass().getSimpleName(), "message", ex.getMessage()),
-                "ts", java.time.OffsetDateTime.now().toString()
-            ));
-        }
+        // served from the background prober; never blocks on db-service
+        return ResponseEntity.ok(Map.of(
+            "ok", true,
+            "service", "finance-service",
+            "db", dbHealth.toMap(),
+            "ts", java.time.OffsetDateTime.now().toString()
+        ));
     }
 
     /* ===========================
@@ -88,10 +80,14 @@ public class FinanceController {
        Upsert positions for a profile’s account
        POST /finance/positions
        Body: { profileId, accountId, positions: [...] }
+       Optional header: Idempotency-Key (passed through; db-service will dedupe once it
+       handles {financePath}/positions and the route is added to idempotency.routes)
        Forwards to db-service: {financePath}/positions
        =========================== */
     @PostMapping(path = "/positions", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> upsertPositions(@Valid @RequestBody PositionsUpsertRequest body) {
+    public ResponseEntity<Map<String, Object>> upsertPositions(
+            @Valid @RequestBody PositionsUpsertRequest body,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         URI uri = buildDbUri(b -> b
                 .path(props.financePath())
                 .path("/positions")
@@ -100,6 +96,7 @@ public class FinanceController {
         Map<String, Object> result = dbClient.post()
                 .uri(uri)
                 .contentType(MediaType.APPLICATION_JSON)
+                .headers(h -> { if (idempotencyKey != null) h.set(IDEMPOTENCY_KEY, idempotencyKey); })
                 .bodyValue(body)
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
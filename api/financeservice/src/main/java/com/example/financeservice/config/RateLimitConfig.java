@@ -0,0 +1,48 @@
+package com.example.financeservice.config;
+
+import com.example.financeservice.ratelimit.RateLimitFilter;
+import com.example.financeservice.ratelimit.TokenBucketLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    /** Write endpoints fan out to Mongo writes in db-service. */
+    private static final List<RateLimitProperties.Route> DEFAULT_ROUTES = List.of(
+            new RateLimitProperties.Route("POST", "/finance/positions", 5.0, 20),
+            new RateLimitProperties.Route("POST", "/finance/accounts/link", 1.0, 5)
+    );
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties props) {
+        List<RateLimitProperties.Route> routes =
+                (props.routes() == null || props.routes().isEmpty()) ? DEFAULT_ROUTES : props.routes();
+
+        Map<String, TokenBucketLimiter> limiters = new HashMap<>();
+        for (RateLimitProperties.Route r : routes) {
+            String key = r.method().toUpperCase(Locale.ROOT) + " " + r.path();
+            limiters.put(key, new TokenBucketLimiter(r.permitsPerSecond(), r.burst(), props.maxKeys()));
+            log.info("finance-service: rate limit {} = {}/s, burst {}", key, r.permitsPerSecond(), r.burst());
+        }
+
+        FilterRegistrationBean<RateLimitFilter> reg =
+                new FilterRegistrationBean<>(new RateLimitFilter(Map.copyOf(limiters), props.apiKeyHeader()));
+        reg.setEnabled(props.enabled());
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return reg;
+    }
+}
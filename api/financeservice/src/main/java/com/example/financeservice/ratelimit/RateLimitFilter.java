@@ -0,0 +1,71 @@
+package com.example.financeservice.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for expensive routes. Each configured route has its own limiter;
+ * a request must pass both its client-IP bucket and (if sent) its API-key bucket.
+ * Rejections get 429 + Retry-After before any downstream work is done.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    /** Keyed by "METHOD path". */
+    private final Map<String, TokenBucketLimiter> limiters;
+    private final String apiKeyHeader;
+
+    public RateLimitFilter(Map<String, TokenBucketLimiter> limiters, String apiKeyHeader) {
+        this.limiters = limiters;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        // the path Spring MVC matches handlers on: decoded, ";params" stripped, without the context path
+        String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(req);
+        TokenBucketLimiter limiter = limiters.get(req.getMethod() + " " + path);
+        if (limiter == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        String ip = clientIp(req);
+        long wait = limiter.tryAcquire("ip:" + ip);
+        String apiKey = req.getHeader(apiKeyHeader);
+        if (wait == 0L && apiKey != null && !apiKey.isBlank()) {
+            wait = limiter.tryAcquire("key:" + apiKey);
+        }
+        if (wait == 0L) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+        log.debug("rate limited {} {} from {}", req.getMethod(), path, ip);
+        res.setStatus(429);
+        res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.getWriter().write("{\"error\":\"too many requests\",\"retryAfterSeconds\":" + retryAfter + "}");
+    }
+
+    /** The proxy sets X-Real-IP; fall back to the socket peer when called directly. */
+    private static String clientIp(HttpServletRequest req) {
+        String real = req.getHeader("X-Real-IP");
+        return (real != null && !real.isBlank()) ? real.trim() : req.getRemoteAddr();
+    }
+}
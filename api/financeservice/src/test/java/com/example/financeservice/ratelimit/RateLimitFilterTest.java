@@ -0,0 +1,37 @@
+package com.example.financeservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            Map.of("POST /finance/accounts/link", new TokenBucketLimiter(0.2, 1, 1024)), "X-API-Key");
+
+    @Test
+    void limitsByLookupPathNotRawUri() throws Exception {
+        assertThat(call("/finance/accounts/link")).isEqualTo(200);
+        assertThat(call("/finance/accounts/link;x=1")).isEqualTo(429);
+        assertThat(call("/finance/accounts/%6Cink")).isEqualTo(429);
+        assertThat(call("/finance//accounts/link")).isEqualTo(429);
+    }
+
+    @Test
+    void leavesOtherRoutesAlone() throws Exception {
+        for (int i = 0; i < 5; i++) assertThat(call("/finance/positions")).isEqualTo(200);
+    }
+
+    private int call(String uri) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", uri);
+        req.addHeader("X-Real-IP", "203.0.113.7");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, new MockFilterChain());
+        return res.getStatus();
+    }
+}
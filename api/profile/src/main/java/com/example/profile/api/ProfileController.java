@@ -1,5 +1,9 @@
 package com.example.profile.api;
 
+import com.example.profile.health.DbHealthMonitor;
+import com.example.profile.loader.ProfileBatchLoader;
+import com.example.profile.ratelimit.RateLimitFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -20,10 +24,17 @@ import java.util.Map;
 public class ProfileController {
 
   private static final Logger log = LoggerFactory.getLogger(ProfileController.class);
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  private static final String API_KEY = "X-API-Key";
+  private static final String REAL_IP = "X-Real-IP";
   private final WebClient dbClient;
+  private final DbHealthMonitor dbHealth;
+  private final ProfileBatchLoader profileLoader;
 
-  public ProfileController(WebClient dbServiceClient) {
+  public ProfileController(WebClient dbServiceClient, DbHealthMonitor dbHealth, ProfileBatchLoader profileLoader) {
     this.dbClient = dbServiceClient;
+    this.dbHealth = dbHealth;
+    this.profileLoader = profileLoader;
   }
 
   /** Quick liveness (does NOT call db-service). */
@@ -32,28 +43,15 @@ public class ProfileController {
     return Map.of("ok", true, "service", "profile-api", "ts", Instant.now().toString());
   }
 
-  /** Health that pings db-service but still returns 200 with a status payload. */
+  /** Health from the background db-service prober; never calls db-service inline. */
   @GetMapping("/healthz")
-  public Mono<ResponseEntity<Map<String, Object>>> healthz() {
-    return dbClient.get()
-        .uri("/db/healthz")
-        .retrieve()
-        .bodyToMono(String.class)
-        .map(_ok -> ResponseEntity.ok(Map.of(
-            "ok", true,
-            "service", "profile-api",
-            "db", Map.of("ok", true),
-            "ts", Instant.now().toString()
-        )))
-        .onErrorResume(err -> {
-          log.warn("db-service health probe failed: {}", err.toString());
-          return Mono.just(ResponseEntity.ok(Map.of(
-              "ok", true,
-              "service", "profile-api",
-              "db", Map.of("ok", false, "error", err.getClass().getSimpleName(), "message", err.getMessage()),
-              "ts", Instant.now().toString()
-          )));
-        });
+  public ResponseEntity<Map<String, Object>> healthz() {
+    return ResponseEntity.ok(Map.of(
+        "ok", true,
+        "service", "profile-api",
+        "db", dbHealth.toMap(),
+        "ts", Instant.now().toString()
+    ));
   }
 
   @GetMapping("/getProfiles")
@@ -77,11 +75,57 @@ public class ProfileController {
         });
   }
 
+  /** Single profile by id. */
+  @GetMapping("/profiles/{id}")
+  public Mono<ResponseEntity<Object>> getProfile(@PathVariable String id) {
+    return dbClient.get()
+        .uri("/db/profiles/{id}", id)
+        .retrieve()
+        .bodyToMono(Object.class)
+        .map(p -> ResponseEntity.ok().body(p))
+        .onErrorResume(WebClientResponseException.NotFound.class,
+            nf -> Mono.just(ResponseEntity.status(404).body(Map.of("error", "profile not found"))))
+        .onErrorResume(err -> Mono.just(upstreamError("GET /db/profiles/{id}", err)));
+  }
+
+  /**
+   * Profiles for a list of ids. Body: { "ids": [...] }, at most ProfileBatchLoader.MAX_BATCH distinct ids.
+   * Ids are de-duplicated and fetched with one upstream batch call; unknown ids are omitted.
+   */
+  @PostMapping(value = "/profiles/batchGet", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Object>> batchGetProfiles(@RequestBody Map<String, List<String>> body) {
+    List<String> ids = body.get("ids");
+    if (ids == null) {
+      return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "ids is required")));
+    }
+    if (ids.stream().distinct().count() > ProfileBatchLoader.MAX_BATCH) {
+      return Mono.just(ResponseEntity.badRequest()
+          .body(Map.of("error", "at most " + ProfileBatchLoader.MAX_BATCH + " ids per batch")));
+    }
+    return profileLoader.loadMany(ids)
+        .map(list -> ResponseEntity.ok().<Object>body(list))
+        .onErrorResume(err -> Mono.just(upstreamError("POST /db/profiles:batchGet", err)));
+  }
+
+  /**
+   * Forwards Idempotency-Key so db-service can replay a retried signup instead of re-hashing,
+   * plus the caller (X-Real-IP, X-API-Key) so a replay only goes back to the same client.
+   */
   @PostMapping(value = "/createProfile", consumes = MediaType.APPLICATION_JSON_VALUE)
-  public Mono<ResponseEntity<String>> createProfile(@RequestBody Map<String, Object> body) {
+  public Mono<ResponseEntity<String>> createProfile(
+      @RequestBody Map<String, Object> body,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+      @RequestHeader(value = API_KEY, required = false) String apiKey,
+      HttpServletRequest request) {
+    String clientIp = RateLimitFilter.clientIp(request);
     return dbClient.post()
         .uri("/db/profiles")
         .contentType(MediaType.APPLICATION_JSON)
+        .headers(h -> {
+          h.set(REAL_IP, clientIp);
+          if (idempotencyKey != null) h.set(IDEMPOTENCY_KEY, idempotencyKey);
+          if (apiKey != null) h.set(API_KEY, apiKey);
+        })
         .bodyValue(body)
         .retrieve()
         .toEntity(String.class)
@@ -100,6 +144,41 @@ public class ProfileController {
         });
   }
 
+  /**
+   * Credential check proxied to db-service POST /db/auth/verify.
+   * Upstream 401/429/503 are passed through as-is (with Retry-After); only transport errors become 502.
+   */
+  @PostMapping(value = "/login", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<String>> login(@RequestBody Map<String, Object> body, HttpServletRequest request) {
+    // db-service counts failed attempts per login and client IP
+    String clientIp = RateLimitFilter.clientIp(request);
+    return dbClient.post()
+        .uri("/db/auth/verify")
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(REAL_IP, clientIp)
+        .bodyValue(body)
+        .exchangeToMono(up -> up.toEntity(String.class))
+        .map(up -> ResponseEntity
+            .status(up.getStatusCode())
+            .headers(filterHeaders(up.getHeaders()))
+            .body(up.getBody()))
+        .onErrorResume(err -> {
+          log.error("Failed calling db-service POST /db/auth/verify", err);
+          String msg = err.getClass().getSimpleName() + ": " + String.valueOf(err.getMessage());
+          return Mono.just(ResponseEntity.status(502)
+              .contentType(MediaType.APPLICATION_JSON)
+              .body("{\"error\":\"db-service unreachable\",\"detail\":\"" + escapeJson(msg) + "\"}"));
+        });
+  }
+
+  private static ResponseEntity<Object> upstreamError(String call, Throwable err) {
+    log.error("Failed calling db-service {}", call, err);
+    String msg = (err instanceof WebClientResponseException we)
+        ? we.getStatusCode() + " " + safe(we.getResponseBodyAsString())
+        : err.getClass().getSimpleName() + ": " + String.valueOf(err.getMessage());
+    return ResponseEntity.status(502).body(Map.of("error", "db-service unreachable", "detail", msg));
+  }
+
   /** Remove hop-by-hop headers that must not be forwarded. */
   private static HttpHeaders filterHeaders(HttpHeaders in) {
     HttpHeaders out = new HttpHeaders();
@@ -0,0 +1,44 @@
+package com.example.profile.config;
+
+import com.example.profile.health.DbHealthMonitor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Enables the background db-service prober and short-circuits proxy routes with 503
+ * while it reports db-service down, instead of letting each request wait for the timeout.
+ */
+@Configuration
+@EnableScheduling
+public class DbHealthConfig implements WebMvcConfigurer {
+
+  private final DbHealthMonitor dbHealth;
+
+  public DbHealthConfig(DbHealthMonitor dbHealth) {
+    this.dbHealth = dbHealth;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new HandlerInterceptor() {
+          @Override
+          public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) throws Exception {
+            if (!dbHealth.isDown()) return true;
+            res.setStatus(503);
+            res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(dbHealth.retryAfterSeconds()));
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write("{\"error\":\"db-service unavailable\"}");
+            return false;
+          }
+        })
+        .addPathPatterns("/profile/**")
+        .excludePathPatterns("/profile/ping", "/profile/healthz");
+  }
+}
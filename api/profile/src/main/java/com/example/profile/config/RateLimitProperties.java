@@ -0,0 +1,27 @@
+package com.example.profile.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Binds properties with prefix "ratelimit".
+ * Routes are matched on exact method + path, e.g.
+ *   ratelimit.routes[0].method=POST
+ *   ratelimit.routes[0].path=/profile/createProfile
+ *   ratelimit.routes[0].permits-per-second=0.2
+ *   ratelimit.routes[0].burst=5
+ * When no routes are configured, {@link RateLimitConfig} falls back to its built-in defaults.
+ */
+@ConfigurationProperties(prefix = "ratelimit")
+public record RateLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    // upper bound on tracked buckets per route (IP and API-key buckets combined)
+    @DefaultValue("65536") int maxKeys,
+    @DefaultValue("X-API-Key") String apiKeyHeader,
+    List<Route> routes
+) {
+
+  public record Route(String method, String path, double permitsPerSecond, int burst) { }
+}
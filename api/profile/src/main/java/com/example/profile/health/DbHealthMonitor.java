@@ -0,0 +1,91 @@
+package com.example.profile.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Probes db-service /db/healthz on a fixed delay and keeps the last result, so health
+ * endpoints answer from memory and proxy routes can fail fast while db-service is down.
+ * db-service is marked down after {@code failureThreshold} consecutive failed probes and
+ * up again on the first success. Until the first probe completes it is assumed up.
+ */
+@Component
+public class DbHealthMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(DbHealthMonitor.class);
+
+  private final WebClient dbClient;
+  private final Duration timeout;
+  private final Duration interval;
+  private final int failureThreshold;
+
+  private volatile Snapshot current = new Snapshot(true, -1, null, null, 0);
+
+  public DbHealthMonitor(WebClient dbServiceClient,
+                         @Value("${dbservice.health.timeout:PT2S}") Duration timeout,
+                         @Value("${dbservice.health.interval:PT5S}") Duration interval,
+                         @Value("${dbservice.health.failure-threshold:2}") int failureThreshold) {
+    this.dbClient = dbServiceClient;
+    this.timeout = timeout;
+    this.interval = interval;
+    this.failureThreshold = failureThreshold;
+  }
+
+  @Scheduled(fixedDelayString = "${dbservice.health.interval:PT5S}")
+  public void probe() {
+    long start = System.nanoTime();
+    Snapshot prev = current;
+    Snapshot next;
+    try {
+      dbClient.get().uri("/db/healthz").retrieve().toBodilessEntity().block(timeout);
+      next = new Snapshot(true, elapsedMs(start), Instant.now(), null, 0);
+    } catch (Exception e) {
+      int failures = prev.consecutiveFailures() + 1;
+      boolean up = prev.up() && failures < failureThreshold;
+      next = new Snapshot(up, elapsedMs(start), Instant.now(), e.getClass().getSimpleName() + ": " + e.getMessage(), failures);
+    }
+    if (prev.up() != next.up()) {
+      log.warn("db-service is now {} ({})", next.up() ? "UP" : "DOWN", next.up() ? next.latencyMs() + "ms" : next.error());
+    }
+    current = next;
+  }
+
+  public boolean isDown() {
+    return !current.up();
+  }
+
+  /** Seconds a caller should wait before retrying while db-service is down. */
+  public long retryAfterSeconds() {
+    return Math.max(1L, interval.toSeconds());
+  }
+
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  /** Health payload for the "db" section of /healthz. */
+  public Map<String, Object> toMap() {
+    Snapshot s = current;
+    Map<String, Object> m = new LinkedHashMap<>();
+    m.put("ok", s.up());
+    m.put("latencyMs", s.latencyMs());
+    m.put("checkedAt", s.checkedAt() == null ? null : s.checkedAt().toString());
+    if (s.error() != null) m.put("error", s.error());
+    return m;
+  }
+
+  private static long elapsedMs(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000;
+  }
+
+  public record Snapshot(boolean up, long latencyMs, Instant checkedAt, String error, int consecutiveFailures) { }
+}
@@ -0,0 +1,54 @@
+package com.example.profile.loader;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-id profile lookups: the ids are de-duplicated and sent to db-service as
+ * POST /db/profiles:batchGet (split into chunks of {@link #MAX_BATCH}), so N ids cost one
+ * round trip per chunk instead of N. Single lookups go straight to GET /db/profiles/{id}.
+ */
+@Component
+public class ProfileBatchLoader {
+
+  /** Matches db-service's per-call id limit. */
+  public static final int MAX_BATCH = 500;
+  private static final ParameterizedTypeReference<Map<String, Object>> PROFILE = new ParameterizedTypeReference<>() { };
+
+  private final WebClient dbClient;
+
+  public ProfileBatchLoader(WebClient dbServiceClient) {
+    this.dbClient = dbServiceClient;
+  }
+
+  /** Profiles for {@code ids} in request order (duplicates and unknown ids dropped). */
+  public Mono<List<Map<String, Object>>> loadMany(List<String> ids) {
+    List<String> distinct = ids.stream().distinct().toList();
+    List<List<String>> chunks = new ArrayList<>();
+    for (int i = 0; i < distinct.size(); i += MAX_BATCH) {
+      chunks.add(distinct.subList(i, Math.min(distinct.size(), i + MAX_BATCH)));
+    }
+    return Flux.fromIterable(chunks)
+        .concatMap(this::fetch)
+        .collectMap(p -> String.valueOf(p.get("id")), p -> p, HashMap::new)
+        .map(byId -> distinct.stream().filter(byId::containsKey).map(byId::get).toList());
+  }
+
+  private Flux<Map<String, Object>> fetch(List<String> chunk) {
+    return dbClient.post()
+        .uri("/db/profiles:batchGet")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("ids", chunk))
+        .retrieve()
+        .bodyToFlux(PROFILE);
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.profile.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token bucket, implemented as GCRA so each bucket is a single AtomicLong
+ * (the "theoretical arrival time") updated with CAS — no locks on the hot path.
+ *
+ * Keys are spread over a fixed number of stripes, each with its own bounded map.
+ * A bucket whose TAT is in the past is full again and carries no state, so it can be
+ * dropped; a full stripe sweeps those at most once per second (one thread per stripe, the
+ * rest don't wait). An evicted bucket is first CAS'd to a tombstone, so a request that had
+ * already fetched it retries against the live map instead of spending its permit on a bucket
+ * nobody will see again. If a stripe is still full of active buckets (e.g. an attacker churning
+ * keys), new keys share that stripe's overflow bucket until the next sweep makes room.
+ */
+public final class TokenBucketLimiter {
+
+  private static final int STRIPES = 16;
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  /** TAT of a bucket removed from its stripe; never a real arrival time. */
+  private static final long EVICTED = Long.MAX_VALUE;
+
+  private final long emissionIntervalNanos;
+  private final long toleranceNanos;
+  private final int stripeCapacity;
+  private final LongSupplier clock;
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  public TokenBucketLimiter(double permitsPerSecond, int burst, int maxKeys) {
+    this(permitsPerSecond, burst, maxKeys, System::nanoTime);
+  }
+
+  TokenBucketLimiter(double permitsPerSecond, int burst, int maxKeys, LongSupplier clock) {
+    if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be > 0");
+    if (burst < 1) throw new IllegalArgumentException("burst must be >= 1");
+    this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+    this.toleranceNanos = emissionIntervalNanos * (burst - 1L);
+    this.stripeCapacity = Math.max(1, maxKeys / STRIPES);
+    this.clock = clock;
+    long now = clock.getAsLong();
+    for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(now - SWEEP_INTERVAL_NANOS);
+  }
+
+  /**
+   * Try to take one permit for {@code key}.
+   * @return 0 if admitted, otherwise the nanos until a permit becomes available.
+   */
+  public long tryAcquire(String key) {
+    long now = clock.getAsLong();
+    AtomicLong tat = bucketFor(key, now);
+    while (true) {
+      long current = tat.get();
+      if (current == EVICTED) {
+        // swept between lookup and CAS: use whatever bucket the key has now
+        tat = bucketFor(key, now);
+        continue;
+      }
+      long base = Math.max(current, now);
+      long wait = base - now - toleranceNanos;
+      if (wait > 0) return wait;
+      if (tat.compareAndSet(current, base + emissionIntervalNanos)) return 0L;
+    }
+  }
+
+  /** Number of buckets currently tracked (for diagnostics). */
+  public int size() {
+    int n = 0;
+    for (Stripe s : stripes) n += s.buckets.size();
+    return n;
+  }
+
+  private AtomicLong bucketFor(String key, long now) {
+    Stripe s = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+    AtomicLong tat = s.buckets.get(key);
+    if (tat != null) {
+      if (tat.get() != EVICTED) return tat;
+      s.buckets.remove(key, tat); // don't wait for the sweeper to finish unlinking it
+    }
+
+    if (s.buckets.size() >= stripeCapacity) {
+      sweep(s, now);
+      if (s.buckets.size() >= stripeCapacity) return s.overflow;
+    }
+    return s.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+  }
+
+  /** Drop full buckets from a stripe; at most once per SWEEP_INTERVAL, by whichever thread wins the CAS. */
+  private static void sweep(Stripe s, long now) {
+    long last = s.lastSweep.get();
+    if (now - last < SWEEP_INTERVAL_NANOS || !s.lastSweep.compareAndSet(last, now)) return;
+    s.buckets.forEach((k, b) -> {
+      long v = b.get();
+      // full buckets are indistinguishable from fresh ones, so evicting them is lossless
+      if (v <= now && b.compareAndSet(v, EVICTED)) s.buckets.remove(k, b);
+    });
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  private static final class Stripe {
+    final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    final AtomicLong lastSweep;
+
+    Stripe(long lastSweep) {
+      this.lastSweep = new AtomicLong(lastSweep);
+    }
+  }
+}
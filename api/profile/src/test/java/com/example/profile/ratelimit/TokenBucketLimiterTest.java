@@ -0,0 +1,141 @@
+package com.example.profile.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+  @Test
+  void admitsBurstThenOnePerEmissionInterval() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 3, 1024, clock::get);
+
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND);
+
+    clock.addAndGet(SECOND / 2);
+    assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND / 2);
+
+    clock.addAndGet(SECOND / 2);
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND);
+  }
+
+  @Test
+  void idleBucketRefillsOnlyUpToBurst() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(0.2, 2, 1024, clock::get);
+    assertThat(limiter.tryAcquire("a")).isZero();
+
+    clock.addAndGet(60 * SECOND);
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isEqualTo(5 * SECOND);
+  }
+
+  @Test
+  void rejectedRequestsDoNotConsumePermits() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 1024, clock::get);
+    assertThat(limiter.tryAcquire("a")).isZero();
+    for (int i = 0; i < 10; i++) assertThat(limiter.tryAcquire("a")).isPositive();
+
+    clock.addAndGet(SECOND);
+    assertThat(limiter.tryAcquire("a")).isZero();
+  }
+
+  @Test
+  void keysHaveIndependentBuckets() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 1024, clock::get);
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isPositive();
+    assertThat(limiter.tryAcquire("b")).isZero();
+  }
+
+  @Test
+  void fullStripeSweepsIdleBucketsAtMostOncePerSecond() {
+    // 16 keys -> one bucket per stripe
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 16, clock::get);
+    List<String> keys = sameStripe(4);
+
+    assertThat(limiter.tryAcquire(keys.get(0))).isZero();
+    clock.addAndGet(SECOND); // key 0 is full again, so it can be evicted
+    assertThat(limiter.tryAcquire(keys.get(1))).isZero();
+    assertThat(limiter.size()).isEqualTo(1);
+
+    // key 1 is still active and the stripe was swept just now: new keys share the overflow bucket
+    clock.addAndGet(SECOND / 2);
+    assertThat(limiter.tryAcquire(keys.get(2))).isZero();
+    assertThat(limiter.tryAcquire(keys.get(3))).isPositive();
+    assertThat(limiter.tryAcquire(keys.get(1))).isPositive();
+
+    // a second later key 1 is idle and the sweep may run again
+    clock.addAndGet(SECOND);
+    assertThat(limiter.tryAcquire(keys.get(3))).isZero();
+    assertThat(limiter.size()).isEqualTo(1);
+  }
+
+  @Test
+  void trackedKeysStayBoundedUnderChurn() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 256, clock::get);
+    for (int i = 0; i < 10_000; i++) {
+      limiter.tryAcquire("ip:" + i);
+      clock.addAndGet(SECOND / 100);
+    }
+    assertThat(limiter.size()).isLessThanOrEqualTo(256);
+  }
+
+  @Test
+  void concurrentCallersGetExactlyTheBurst() throws Exception {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 50, 1024, clock::get);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger admitted = new AtomicInteger();
+    try {
+      for (int i = 0; i < 400; i++) {
+        pool.execute(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          if (limiter.tryAcquire("a") == 0L) admitted.incrementAndGet();
+        });
+      }
+      start.countDown();
+    } finally {
+      pool.shutdown();
+      assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+    assertThat(admitted.get()).isEqualTo(50);
+  }
+
+  /** Keys that land in the same stripe as "k0" (same spread as the limiter). */
+  private static List<String> sameStripe(int n) {
+    List<String> keys = new ArrayList<>();
+    int target = stripe("k0");
+    for (int i = 0; keys.size() < n; i++) {
+      if (stripe("k" + i) == target) keys.add("k" + i);
+    }
+    return keys;
+  }
+
+  private static int stripe(String key) {
+    int h = key.hashCode();
+    return (h ^ (h >>> 16)) & 15;
+  }
+}